@@ -0,0 +1,62 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static org.agrona.concurrent.broadcast.BroadcastBufferDescriptor.TAIL_COUNTER_OFFSET;
+import static org.agrona.concurrent.broadcast.BroadcastBufferDescriptor.TRAILER_LENGTH;
+
+import java.nio.file.Path;
+
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.reaktivity.reaktor.internal.layouts.ControlLayout;
+
+final class ControlBuffers implements AutoCloseable
+{
+    private final ControlLayout control;
+    private final RingBuffer commandBuffer;
+    private final AtomicBuffer responseBuffer;
+    private final int responseBufferCapacity;
+
+    ControlBuffers(
+        Path controlPath)
+    {
+        this.control = new ControlLayout.Builder()
+            .controlPath(controlPath)
+            .readonly(true)
+            .build();
+        this.commandBuffer = new ManyToOneRingBuffer(control.commandBuffer());
+        this.responseBuffer = control.responseBuffer();
+        this.responseBufferCapacity = responseBuffer.capacity() - TRAILER_LENGTH;
+    }
+
+    int commandBufferOccupancy()
+    {
+        return commandBuffer.size();
+    }
+
+    long responseBytesWritten()
+    {
+        return responseBuffer.getLongVolatile(responseBufferCapacity + TAIL_COUNTER_OFFSET);
+    }
+
+    @Override
+    public void close()
+    {
+        control.close();
+    }
+}
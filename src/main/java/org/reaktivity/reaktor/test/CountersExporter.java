@@ -0,0 +1,151 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class CountersExporter
+{
+    static final Pattern ROUTE_COUNTER_PATTERN =
+            Pattern.compile("(?<nukleus>[^.]+)\\.(?<routeId>\\d+)\\.(?<kind>[^.]+)\\.(?<direction>[^.]+)");
+    private static final Pattern INVALID_METRIC_CHARS_PATTERN = Pattern.compile("[^a-zA-Z0-9_]");
+
+    private static final String CSV_HEADER = "timestamp,name,nukleus,routeId,kind,direction,value\n";
+
+    private final Path prometheusPath;
+    private final Path csvPath;
+    private final Path stressPath;
+
+    CountersExporter(
+        Path directory,
+        String name)
+    {
+        this.prometheusPath = directory.resolve(String.format("%s.prom", name));
+        this.csvPath = directory.resolve(String.format("%s.csv", name));
+        this.stressPath = directory.resolve(String.format("%s.stress.txt", name));
+    }
+
+    void reset() throws IOException
+    {
+        Files.deleteIfExists(prometheusPath);
+        Files.deleteIfExists(csvPath);
+        Files.deleteIfExists(stressPath);
+    }
+
+    void export(
+        long timestamp,
+        Map<String, Long> counters) throws IOException
+    {
+        Files.createDirectories(prometheusPath.getParent());
+
+        writePrometheus(counters);
+        appendCsv(timestamp, counters);
+    }
+
+    void export(
+        StressReport report) throws IOException
+    {
+        Files.createDirectories(stressPath.getParent());
+        Files.write(stressPath, List.of(report.toString()), UTF_8);
+    }
+
+    private void writePrometheus(
+        Map<String, Long> counters) throws IOException
+    {
+        final Map<String, StringBuilder> metrics = new TreeMap<>();
+        counters.forEach((name, value) ->
+        {
+            final Matcher matcher = ROUTE_COUNTER_PATTERN.matcher(name);
+            if (matcher.matches())
+            {
+                final String metric = metricName(String.format("%s_%s_total", matcher.group("kind"), matcher.group("direction")));
+                metrics.computeIfAbsent(metric, CountersExporter::newMetric)
+                       .append(String.format("%s{nukleus=\"%s\",route_id=\"%s\"} %d\n",
+                               metric, matcher.group("nukleus"), matcher.group("routeId"), value));
+            }
+            else
+            {
+                final String metric = metricName(name);
+                metrics.computeIfAbsent(metric, CountersExporter::newMetric)
+                       .append(String.format("%s %d\n", metric, value));
+            }
+        });
+
+        try (Writer writer = Files.newBufferedWriter(prometheusPath, UTF_8, CREATE, TRUNCATE_EXISTING, WRITE))
+        {
+            for (StringBuilder metric : metrics.values())
+            {
+                writer.append(metric);
+            }
+        }
+    }
+
+    private void appendCsv(
+        long timestamp,
+        Map<String, Long> counters) throws IOException
+    {
+        final boolean header = !Files.exists(csvPath);
+        try (Writer writer = Files.newBufferedWriter(csvPath, UTF_8, CREATE, APPEND, WRITE))
+        {
+            if (header)
+            {
+                writer.append(CSV_HEADER);
+            }
+
+            for (Map.Entry<String, Long> entry : counters.entrySet())
+            {
+                final String name = entry.getKey();
+                final Matcher matcher = ROUTE_COUNTER_PATTERN.matcher(name);
+                if (matcher.matches())
+                {
+                    writer.append(String.format("%d,%s,%s,%s,%s,%s,%d\n", timestamp, name,
+                            matcher.group("nukleus"), matcher.group("routeId"),
+                            matcher.group("kind"), matcher.group("direction"), entry.getValue()));
+                }
+                else
+                {
+                    writer.append(String.format("%d,%s,,,,,%d\n", timestamp, name, entry.getValue()));
+                }
+            }
+        }
+    }
+
+    private static String metricName(
+        String name)
+    {
+        return String.format("reaktor_%s", INVALID_METRIC_CHARS_PATTERN.matcher(name).replaceAll("_"));
+    }
+
+    private static StringBuilder newMetric(
+        String metric)
+    {
+        return new StringBuilder(String.format("# TYPE %s counter\n", metric));
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.reaktivity.nukleus.Controller;
+import org.reaktivity.nukleus.ControllerBuilder;
+import org.reaktivity.nukleus.ControllerSpi;
+
+final class DecoratingControllerBuilder<T extends Controller> implements ControllerBuilder<T>
+{
+    private final ControllerBuilder<T> delegate;
+    private final UnaryOperator<ControllerSpi> decorator;
+
+    DecoratingControllerBuilder(
+        ControllerBuilder<T> delegate,
+        UnaryOperator<ControllerSpi> decorator)
+    {
+        this.delegate = delegate;
+        this.decorator = decorator;
+    }
+
+    @Override
+    public Class<T> kind()
+    {
+        return delegate.kind();
+    }
+
+    @Override
+    public ControllerBuilder<T> setFactory(
+        Function<ControllerSpi, T> factory)
+    {
+        delegate.setFactory(spi -> factory.apply(decorator.apply(spi)));
+        return this;
+    }
+
+    @Override
+    public T build()
+    {
+        return delegate.build();
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Concurrent latency histogram with linear sub-buckets within each power of two,
+ * bounding the relative error of recorded values to {@code 1/128}.
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets;
+    private final AtomicLong count;
+    private final AtomicLong total;
+    private final LongAccumulator min;
+    private final LongAccumulator max;
+
+    LatencyHistogram()
+    {
+        this.buckets = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new AtomicLong();
+        this.total = new AtomicLong();
+        this.min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        this.max = new LongAccumulator(Math::max, 0L);
+    }
+
+    public void record(
+        long valueNanos)
+    {
+        final long value = Math.max(valueNanos, 0L);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    public long count()
+    {
+        return count.get();
+    }
+
+    public long minNanos()
+    {
+        return count() != 0L ? min.get() : 0L;
+    }
+
+    public long maxNanos()
+    {
+        return max.get();
+    }
+
+    public long meanNanos()
+    {
+        final long count = count();
+        return count != 0L ? total.get() / count : 0L;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, capped at the maximum recorded value,
+     * which exceeds the exact percentile by less than {@code 1/128} of its value.
+     */
+    public long percentileNanos(
+        double percentile)
+    {
+        final long count = count();
+        final long threshold = (long) Math.ceil(count * Math.min(Math.max(percentile, 0.0), 100.0) / 100.0);
+
+        long upperBound = 0L;
+        long observed = 0L;
+        for (int bucket = 0; bucket < BUCKET_COUNT && observed < Math.max(threshold, 1L); bucket++)
+        {
+            final long bucketCount = buckets.get(bucket);
+            observed += bucketCount;
+            if (bucketCount != 0L)
+            {
+                upperBound = bucketUpperBound(bucket);
+            }
+        }
+
+        return Math.min(upperBound, maxNanos());
+    }
+
+    private static int bucketIndex(
+        long value)
+    {
+        final int shift = Math.max(Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1, -1);
+        return shift < 0 ? (int) value : ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long bucketUpperBound(
+        int bucket)
+    {
+        final int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        return shift < 0 ? bucket : ((((long) SUB_BUCKET_COUNT + (bucket & SUB_BUCKET_MASK)) + 1L) << shift) - 1L;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("count=%d min=%d mean=%d p50=%d p99=%d max=%d (ns)",
+                count(), minNanos(), meanNanos(), percentileNanos(50.0), percentileNanos(99.0), maxNanos());
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static java.nio.file.Files.exists;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.status.CountersReader;
+import org.reaktivity.reaktor.internal.layouts.MetricsLayout;
+
+/**
+ * Reads every counter of a running reaktor from its {@code metrics<n>} files, summing values by label.
+ * <p>
+ * Counters are read through read-only mappings with agrona {@link CountersReader}, which is designed
+ * for concurrent readers, so snapshots can be taken from any thread without calling into the reaktor.
+ */
+final class MetricsReader implements AutoCloseable
+{
+    private final Path directory;
+    private final List<MetricsLayout> layouts;
+    private final List<CountersReader> readers;
+
+    MetricsReader(
+        Path directory)
+    {
+        this.directory = directory;
+        this.layouts = new ArrayList<>();
+        this.readers = new ArrayList<>();
+    }
+
+    synchronized Map<String, Long> counters()
+    {
+        if (readers.isEmpty())
+        {
+            mapMetrics();
+        }
+
+        final Map<String, Long> counters = new TreeMap<>();
+        for (CountersReader reader : readers)
+        {
+            reader.forEach((id, label) -> counters.merge(label, reader.getCounterValue(id), Long::sum));
+        }
+        return counters;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        layouts.forEach(CloseHelper::quietClose);
+        layouts.clear();
+        readers.clear();
+    }
+
+    private void mapMetrics()
+    {
+        for (int index = 0; exists(metricsPath(index)); index++)
+        {
+            final MetricsLayout layout = new MetricsLayout.Builder()
+                .path(metricsPath(index))
+                .readonly(true)
+                .build();
+
+            layouts.add(layout);
+            readers.add(new CountersReader(layout.labelsBuffer(), layout.valuesBuffer()));
+        }
+    }
+
+    private Path metricsPath(
+        int index)
+    {
+        return directory.resolve(String.format("metrics%d", index));
+    }
+}
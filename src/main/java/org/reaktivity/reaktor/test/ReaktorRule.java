@@ -18,8 +18,19 @@ package org.reaktivity.reaktor.test;
 import static java.lang.String.format;
 import static java.nio.file.FileVisitOption.FOLLOW_LINKS;
 import static java.nio.file.Files.exists;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
 import static org.junit.runners.model.MultipleFailureException.assertEmpty;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_BACKOFF_MAX_PARK_NANOS;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_BACKOFF_MAX_SPINS;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_BACKOFF_MAX_YIELDS;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_BACKOFF_MIN_PARK_NANOS;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_BUFFER_POOL_CAPACITY;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_BUFFER_SLOT_CAPACITY;
 import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_COMMAND_BUFFER_CAPACITY;
 import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_COUNTERS_BUFFER_CAPACITY;
 import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_DIRECTORY;
@@ -28,30 +39,50 @@ import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_RESPONSE_BUFFE
 import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_ROUTED_DELAY_MILLIS;
 import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_STREAMS_BUFFER_CAPACITY;
 import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_SYNTHETIC_ABORT;
+import static org.reaktivity.reaktor.test.nukleus.SlowConsumerConfiguration.SLOW_CONSUMER_DELAY_MILLIS;
+import static org.reaktivity.reaktor.test.nukleus.SlowConsumerConfiguration.SLOW_CONSUMER_WINDOW;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 import org.reaktivity.nukleus.Configuration.PropertyDef;
 import org.reaktivity.nukleus.Controller;
+import org.reaktivity.nukleus.ControllerBuilder;
+import org.reaktivity.nukleus.ControllerFactory;
+import org.reaktivity.nukleus.ControllerFactorySpi;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.NukleusFactorySpi;
 import org.reaktivity.reaktor.Reaktor;
 import org.reaktivity.reaktor.ReaktorBuilder;
 import org.reaktivity.reaktor.ReaktorConfiguration;
+import org.reaktivity.reaktor.internal.ControllerBuilderImpl;
+import org.reaktivity.reaktor.internal.agent.ControllerAgent;
 import org.reaktivity.reaktor.test.annotation.Configure;
+import org.reaktivity.reaktor.test.nukleus.SlowConsumerNukleusFactorySpi;
 
 public final class ReaktorRule implements TestRule
 {
@@ -62,19 +93,49 @@ public final class ReaktorRule implements TestRule
     public static final String REAKTOR_BUFFER_SLOT_CAPACITY_NAME = "reaktor.buffer.slot.capacity";
 
     private static final Pattern DATA_FILENAME_PATTERN = Pattern.compile("data\\d+");
+    private static final Pattern METRICS_FILENAME_PATTERN = Pattern.compile("metrics\\d+");
+    private static final Pattern EXPORT_FILENAME_PATTERN = Pattern.compile("[^\\w.\\-]");
+    private static final int STREAMS_FRAME_OVERHEAD = 1024;
+    private static final long EXPORT_TIMEOUT_SECONDS = 5L;
+    private static final List<String> ROUTE_COUNTER_NAMES = List.of(
+        "opens.read", "opens.written", "closes.read", "closes.written",
+        "aborts.read", "aborts.written", "resets.read", "resets.written",
+        "windows.read", "windows.written",
+        "bytes.read", "bytes.written", "frames.read", "frames.written");
 
     private final Properties properties;
     private final ReaktorBuilder builder;
+    private final Set<String> exportNames;
+    private final Map<String, LatencyHistogram> latencies;
 
     private Reaktor reaktor;
 
     private ReaktorConfiguration configuration;
+    private Services.Builder services;
+    private ClassLoader loader;
+    private Predicate<String> nukleusMatcher;
+    private Predicate<String> controllerMatcher;
+    private ControllerAgent controllers;
+    private AgentRunner controllerRunner;
     private boolean clean;
+    private Path exportDirectory;
+    private long exportIntervalMillis;
+    private CountersExporter exporter;
+    private MetricsReader metrics;
+    private ControlBuffers controlBuffers;
+    private boolean stress;
+    private boolean slowConsumer;
+    private long startedAt;
+    private StressReport stressReport;
 
     public ReaktorRule()
     {
         this.builder = Reaktor.builder();
         this.properties = new Properties();
+        this.exportNames = new ConcurrentSkipListSet<>();
+        this.latencies = new ConcurrentHashMap<>();
+        this.nukleusMatcher = n -> false;
+        this.controllerMatcher = c -> false;
 
         configure(REAKTOR_DRAIN_ON_CLOSE, true);
         configure(REAKTOR_SYNTHETIC_ABORT, true);
@@ -106,6 +167,75 @@ public final class ReaktorRule implements TestRule
         return configure(REAKTOR_STREAMS_BUFFER_CAPACITY, streamsBufferCapacity);
     }
 
+    public ReaktorRule bufferSlotCapacity(
+        int bufferSlotCapacity)
+    {
+        return configure(REAKTOR_BUFFER_SLOT_CAPACITY, bufferSlotCapacity);
+    }
+
+    public ReaktorRule bufferPoolCapacity(
+        int bufferPoolCapacity)
+    {
+        return configure(REAKTOR_BUFFER_POOL_CAPACITY, bufferPoolCapacity);
+    }
+
+    public ReaktorRule backoff(
+        long maxSpins,
+        long maxYields,
+        long minParkNanos,
+        long maxParkNanos)
+    {
+        return configure(REAKTOR_BACKOFF_MAX_SPINS, maxSpins)
+              .configure(REAKTOR_BACKOFF_MAX_YIELDS, maxYields)
+              .configure(REAKTOR_BACKOFF_MIN_PARK_NANOS, minParkNanos)
+              .configure(REAKTOR_BACKOFF_MAX_PARK_NANOS, maxParkNanos);
+    }
+
+    /**
+     * Favours response time over CPU usage: idle threads keep spinning before they park,
+     * and park only briefly, while buffers stay at moderate sizes to remain cache friendly.
+     */
+    public ReaktorRule lowLatency()
+    {
+        return streamsBufferCapacity(1024 * 1024)
+              .commandBufferCapacity(64 * 1024)
+              .responseBufferCapacity(64 * 1024)
+              .counterValuesBufferCapacity(1024 * 1024)
+              .bufferSlotCapacity(16 * 1024)
+              .bufferPoolCapacity(16 * 1024 * 256)
+              .backoff(100_000L, 1_000L, 1_000L, MICROSECONDS.toNanos(100L));
+    }
+
+    /**
+     * Favours memory and CPU usage over response time: buffers are kept small, though still large enough
+     * for a full slot in one frame, and idle threads park almost immediately, for up to several milliseconds.
+     */
+    public ReaktorRule lowFootprint()
+    {
+        return streamsBufferCapacity(64 * 1024)
+              .commandBufferCapacity(16 * 1024)
+              .responseBufferCapacity(16 * 1024)
+              .counterValuesBufferCapacity(256 * 1024)
+              .bufferSlotCapacity(4 * 1024)
+              .bufferPoolCapacity(4 * 1024 * 16)
+              .backoff(1L, 1L, MICROSECONDS.toNanos(100L), MILLISECONDS.toNanos(10L));
+    }
+
+    /**
+     * Favours sustained throughput: large streams buffers and a deep buffer pool absorb bursts,
+     * with moderate spinning before idle threads park.
+     */
+    public ReaktorRule highThroughput()
+    {
+        return streamsBufferCapacity(16 * 1024 * 1024)
+              .commandBufferCapacity(1024 * 1024)
+              .responseBufferCapacity(1024 * 1024)
+              .counterValuesBufferCapacity(4 * 1024 * 1024)
+              .bufferSlotCapacity(64 * 1024)
+              .bufferPoolCapacity(64 * 1024 * 512)
+              .backoff(10_000L, 100L, 10_000L, MILLISECONDS.toNanos(1L));
+    }
+
     public <T> ReaktorRule configure(
         PropertyDef<T> property,
         T value)
@@ -128,16 +258,91 @@ public final class ReaktorRule implements TestRule
         return this;
     }
 
+    public ReaktorRule stress()
+    {
+        return stress(1024, 8);
+    }
+
+    public ReaktorRule stress(
+        int bufferSlotCapacity,
+        int bufferSlotCount)
+    {
+        this.stress = true;
+        return streamsBufferCapacity(streamsCapacityFor(bufferSlotCapacity))
+              .bufferSlotCapacity(bufferSlotCapacity)
+              .bufferPoolCapacity(bufferSlotCapacity * bufferSlotCount);
+    }
+
+    public StressReport stressReport()
+    {
+        ensureReaktorStarted();
+
+        if (stressReport == null && metrics == null)
+        {
+            throw new IllegalStateException("Stress report is only retained after completion in stress mode");
+        }
+
+        return stressReport != null ? stressReport : new StressReport(System.nanoTime() - startedAt, readCounters());
+    }
+
+    public ReaktorRule slowConsumer(
+        int window,
+        long delayMillis)
+    {
+        this.slowConsumer = true;
+        return configure(SLOW_CONSUMER_WINDOW, window)
+              .configure(SLOW_CONSUMER_DELAY_MILLIS, delayMillis)
+              .nukleusFactory(SlowConsumerNukleusFactorySpi.class);
+    }
+
+    public ReaktorRule exportCounters()
+    {
+        return exportCounters("target/reaktor-metrics");
+    }
+
+    public ReaktorRule exportCounters(
+        String directory)
+    {
+        this.exportDirectory = Paths.get(directory);
+        return this;
+    }
+
+    public ReaktorRule exportCountersInterval(
+        long intervalMillis)
+    {
+        this.exportIntervalMillis = intervalMillis;
+        return this;
+    }
+
+    public ReaktorRule exportCounter(
+        String name)
+    {
+        exportNames.add(name);
+        return this;
+    }
+
+    public ReaktorRule exportRouteCounters(
+        String nukleus,
+        long routeId)
+    {
+        for (String counterName : ROUTE_COUNTER_NAMES)
+        {
+            exportCounter(format("%s.%d.%s", nukleus, routeId, counterName));
+        }
+        return this;
+    }
+
     public ReaktorRule nukleus(
         Predicate<String> matcher)
     {
-        builder.nukleus(matcher);
+        this.nukleusMatcher = requireNonNull(matcher);
         return this;
     }
 
     public ReaktorRule loader(
         ClassLoader loader)
     {
+        this.loader = loader;
         builder.loader(loader);
         return this;
     }
@@ -145,7 +350,7 @@ public final class ReaktorRule implements TestRule
     public ReaktorRule controller(
         Predicate<String> matcher)
     {
-        builder.controller(matcher);
+        this.controllerMatcher = requireNonNull(matcher);
         return this;
     }
 
@@ -160,7 +365,25 @@ public final class ReaktorRule implements TestRule
     public ReaktorRule nukleusFactory(
         Class<? extends NukleusFactorySpi> factory)
     {
-        loader(Services.newLoader(NukleusFactorySpi.class, factory));
+        return service(NukleusFactorySpi.class, factory);
+    }
+
+    public ReaktorRule controllerFactory(
+        Class<? extends ControllerFactorySpi> factory)
+    {
+        return service(ControllerFactorySpi.class, factory);
+    }
+
+    public <T> ReaktorRule service(
+        Class<T> service,
+        Class<? extends T> implementation)
+    {
+        if (services == null)
+        {
+            services = Services.builder();
+        }
+
+        services.service(service, implementation);
         return this;
     }
 
@@ -169,7 +392,33 @@ public final class ReaktorRule implements TestRule
     {
         ensureReaktorStarted();
 
-        return requireNonNull(reaktor.controller(kind));
+        return requireNonNull(controllers.controller(kind));
+    }
+
+    public LatencyHistogram latency(
+        String operation)
+    {
+        final LatencyHistogram latency = latencies.get(operation);
+        return latency != null ? latency : new LatencyHistogram();
+    }
+
+    public Map<String, LatencyHistogram> latencies()
+    {
+        return unmodifiableMap(latencies);
+    }
+
+    public int commandBufferOccupancy()
+    {
+        return controlBuffers().commandBufferOccupancy();
+    }
+
+    /**
+     * Returns the total bytes broadcast to controllers since start, including record headers and padding.
+     * Responses are broadcast without backpressure, so unlike commands they have no occupancy to measure.
+     */
+    public long responseBytesWritten()
+    {
+        return controlBuffers().responseBytesWritten();
     }
 
     public <T extends Nukleus> T nukleus(
@@ -272,7 +521,92 @@ public final class ReaktorRule implements TestRule
         return reaktor.counter(name);
     }
 
-    private ReaktorConfiguration configuration()
+    private static int streamsCapacityFor(
+        int bufferSlotCapacity)
+    {
+        // streams messages are limited to an eighth of capacity, so leave room for a full slot plus frame header
+        return Math.max(findNextPositivePowerOfTwo(8 * (bufferSlotCapacity + STREAMS_FRAME_OVERHEAD)), 64 * 1024);
+    }
+
+    private Map<String, Long> readCounters()
+    {
+        final Map<String, Long> counters = metrics.counters();
+        exportNames.forEach(name -> counters.putIfAbsent(name, 0L));
+        return counters;
+    }
+
+    private void writeCounters() throws IOException
+    {
+        exporter.export(System.currentTimeMillis(), readCounters());
+    }
+
+    private ScheduledExecutorService startExport(
+        List<Throwable> errors) throws IOException
+    {
+        ScheduledExecutorService executor = null;
+
+        if (exporter != null)
+        {
+            exporter.reset();
+        }
+
+        if (exporter != null && exportIntervalMillis > 0L)
+        {
+            executor = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread thread = new Thread(r, "reaktor-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            executor.scheduleAtFixedRate(() ->
+            {
+                try
+                {
+                    writeCounters();
+                }
+                catch (Throwable t)
+                {
+                    errors.add(t);
+                }
+            }, exportIntervalMillis, exportIntervalMillis, MILLISECONDS);
+        }
+
+        return executor;
+    }
+
+    private void stopExport(
+        ScheduledExecutorService executor) throws Exception
+    {
+        if (executor != null)
+        {
+            executor.shutdown();
+            if (!executor.awaitTermination(EXPORT_TIMEOUT_SECONDS, SECONDS))
+            {
+                throw new IllegalStateException("Timed out waiting for counters export");
+            }
+        }
+
+        if (exporter != null)
+        {
+            writeCounters();
+        }
+    }
+
+    private void reportStress() throws IOException
+    {
+        if (stress)
+        {
+            stressReport = new StressReport(System.nanoTime() - startedAt, readCounters());
+
+            if (exporter != null)
+            {
+                exporter.export(stressReport);
+            }
+        }
+    }
+
+    ReaktorConfiguration configuration()
     {
         if (configuration == null)
         {
@@ -281,6 +615,96 @@ public final class ReaktorRule implements TestRule
         return configuration;
     }
 
+    private ControlBuffers controlBuffers()
+    {
+        ensureReaktorStarted();
+
+        if (controlBuffers == null)
+        {
+            controlBuffers = new ControlBuffers(configuration().directory().resolve("control"));
+        }
+        return controlBuffers;
+    }
+
+    private Reaktor newReaktor(
+        ReaktorConfiguration config,
+        ErrorHandler errorHandler)
+    {
+        if (services != null)
+        {
+            loader(services.build());
+        }
+
+        final Predicate<String> nuklei = slowConsumer
+                ? nukleusMatcher.or(SlowConsumerNukleusFactorySpi.NAME::equals)
+                : nukleusMatcher;
+
+        return builder.config(config)
+                      .nukleus(nuklei)
+                      .errorHandler(errorHandler)
+                      .build();
+    }
+
+    private void startControllers(
+        ReaktorConfiguration config,
+        ErrorHandler errorHandler)
+    {
+        // reaktor only loads controllers from the context class loader, so build them from the rule loader
+        final ControllerFactory factory = loader != null
+                ? ControllerFactory.instantiate(loader)
+                : ControllerFactory.instantiate();
+        final ControllerAgent agent = new ControllerAgent();
+        for (Class<? extends Controller> kind : factory.kinds())
+        {
+            final String name = factory.name(kind);
+            if (controllerMatcher.test(name))
+            {
+                agent.assign(newController(factory, config, kind, name));
+            }
+        }
+
+        if (!agent.isEmpty())
+        {
+            final IdleStrategy idleStrategy = new BackoffIdleStrategy(
+                    config.maxSpins(), config.maxYields(), config.minParkNanos(), config.maxParkNanos());
+            controllerRunner = new AgentRunner(idleStrategy, errorHandler, null, agent);
+            AgentRunner.startOnThread(controllerRunner);
+        }
+
+        controllers = agent;
+    }
+
+    private <T extends Controller> T newController(
+        ControllerFactory factory,
+        ReaktorConfiguration config,
+        Class<T> kind,
+        String name)
+    {
+        final ControllerBuilder<T> builder = new DecoratingControllerBuilder<>(new ControllerBuilderImpl<>(config, kind),
+            spi -> new TimedControllerSpi(spi, operation -> recorder(format("%s.%s", name, operation))));
+        return factory.create(config, builder);
+    }
+
+    private LatencyHistogram recorder(
+        String operation)
+    {
+        return latencies.computeIfAbsent(operation, o -> new LatencyHistogram());
+    }
+
+    private void stopControllers()
+    {
+        CloseHelper.close(controllerRunner);
+        controllerRunner = null;
+    }
+
+    private void unmapLayouts()
+    {
+        CloseHelper.quietClose(metrics);
+        metrics = null;
+        CloseHelper.quietClose(controlBuffers);
+        controlBuffers = null;
+    }
+
     private void ensureReaktorStarted()
     {
         if (reaktor == null)
@@ -306,6 +730,13 @@ public final class ReaktorRule implements TestRule
             LangUtil.rethrowUnchecked(e);
         }
 
+        if (exportDirectory != null)
+        {
+            final String exportName = String.format("%s.%s",
+                    description.getTestClass().getSimpleName(), description.getMethodName());
+            exporter = new CountersExporter(exportDirectory, EXPORT_FILENAME_PATTERN.matcher(exportName).replaceAll("_"));
+        }
+
         return new Statement()
         {
             private boolean shouldDeletePath(
@@ -316,7 +747,8 @@ public final class ReaktorRule implements TestRule
                        "routes".equals(filename) ||
                        "streams".equals(filename) ||
                        "labels".equals(filename) ||
-                       DATA_FILENAME_PATTERN.matcher(filename).matches();
+                       DATA_FILENAME_PATTERN.matcher(filename).matches() ||
+                       METRICS_FILENAME_PATTERN.matcher(filename).matches();
             }
 
             @Override
@@ -342,19 +774,24 @@ public final class ReaktorRule implements TestRule
                 }
 
                 final Thread baseThread = Thread.currentThread();
-                final List<Throwable> errors = new ArrayList<>();
+                final List<Throwable> errors = new CopyOnWriteArrayList<>();
                 final ErrorHandler errorHandler = ex ->
                 {
                     errors.add(ex);
                     baseThread.interrupt();
                 };
-                reaktor = builder.config(config)
-                                 .errorHandler(errorHandler)
-                                 .build();
+                stressReport = null;
+                reaktor = newReaktor(config, errorHandler);
+                metrics = new MetricsReader(directory);
 
+                ScheduledExecutorService export = null;
                 try
                 {
                     reaktor.start();
+                    startControllers(config, errorHandler);
+                    startedAt = System.nanoTime();
+
+                    export = startExport(errors);
 
                     base.evaluate();
                 }
@@ -366,6 +803,17 @@ public final class ReaktorRule implements TestRule
                 {
                     try
                     {
+                        reportStress();
+                        stopExport(export);
+                    }
+                    catch (Throwable t)
+                    {
+                        errors.add(t);
+                    }
+
+                    try
+                    {
+                        stopControllers();
                         reaktor.close();
                     }
                     catch (Throwable t)
@@ -374,6 +822,7 @@ public final class ReaktorRule implements TestRule
                     }
                     finally
                     {
+                        unmapLayouts();
                         assertEmpty(errors);
                     }
                 }
@@ -18,6 +18,7 @@ package org.reaktivity.reaktor.test;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.enumeration;
 import static java.util.Collections.singleton;
+import static java.util.Collections.unmodifiableMap;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -28,22 +29,80 @@ import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Class loaders serving in-memory {@code META-INF/services} registrations.
+ * <p>
+ * Loaders are cached by their registrations and live for the life of the JVM,
+ * so that repeated rules with the same registrations share the same loader and loaded classes.
+ */
 public final class Services
 {
+    private static final Map<Map<String, List<String>>, ClassLoader> LOADERS = new ConcurrentHashMap<>();
+
     public static <T> ClassLoader newLoader(
         Class<T> service,
         Class<? extends T> implementation)
     {
-        final String servicePath = String.format("META-INF/services/%s", service.getName());
-        final URL serviceURL = newURL(service, implementation);
-        return new URLClassLoader(new URL[] { serviceURL })
+        return builder().service(service, implementation).build();
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    static int loaders()
+    {
+        return LOADERS.size();
+    }
+
+    public static final class Builder
+    {
+        private final Map<String, Set<String>> services;
+
+        private Builder()
+        {
+            this.services = new TreeMap<>();
+        }
+
+        public <T> Builder service(
+            Class<T> service,
+            Class<? extends T> implementation)
+        {
+            services.computeIfAbsent(service.getName(), s -> new TreeSet<>())
+                    .add(implementation.getName());
+            return this;
+        }
+
+        public ClassLoader build()
+        {
+            final Map<String, List<String>> registrations = new LinkedHashMap<>();
+            services.forEach((s, i) -> registrations.put(s, List.of(i.toArray(new String[0]))));
+            return LOADERS.computeIfAbsent(unmodifiableMap(registrations), Services::newLoader);
+        }
+    }
+
+    private static ClassLoader newLoader(
+        Map<String, List<String>> registrations)
+    {
+        final Map<String, URL> serviceURLs = new LinkedHashMap<>();
+        registrations.forEach((s, i) -> serviceURLs.put(String.format("META-INF/services/%s", s), newURL(i)));
+        return new URLClassLoader(serviceURLs.values().toArray(new URL[0]))
         {
             @Override
             public URL findResource(
                 String name)
             {
-                if (servicePath.equals(name))
+                final URL serviceURL = serviceURLs.get(name);
+                if (serviceURL != null)
                 {
                     return serviceURL;
                 }
@@ -54,7 +113,8 @@ public final class Services
             public Enumeration<URL> findResources(
                 String name) throws IOException
             {
-                if (servicePath.equals(name))
+                final URL serviceURL = serviceURLs.get(name);
+                if (serviceURL != null)
                 {
                     return enumeration(singleton(serviceURL));
                 }
@@ -64,13 +124,12 @@ public final class Services
         };
     }
 
-    private static <T> URL newURL(
-        Class<T> service,
-        Class<? extends T> implementation)
+    private static URL newURL(
+        List<String> implementations)
     {
         try
         {
-            return new URL(null, String.format("data:,%s", implementation.getName()), new DataHandler());
+            return new URL(null, String.format("data:,%s", String.join(",", implementations)), new DataHandler());
         }
         catch (MalformedURLException ex)
         {
@@ -100,7 +159,7 @@ public final class Services
                 URL location)
             {
                 super(location);
-                this.contents = location.getPath().substring(1).getBytes(UTF_8);
+                this.contents = location.getPath().substring(1).replace(',', '\n').getBytes(UTF_8);
             }
 
             @Override
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.reaktivity.reaktor.test.CountersExporter.ROUTE_COUNTER_PATTERN;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+
+public final class StressReport
+{
+    private final long elapsedNanos;
+    private long bytesRead;
+    private long bytesWritten;
+    private long framesRead;
+    private long framesWritten;
+    private long windowsRead;
+    private long windowsWritten;
+    private long resetsRead;
+    private long resetsWritten;
+    private long abortsRead;
+    private long abortsWritten;
+
+    StressReport(
+        long elapsedNanos,
+        Map<String, Long> counters)
+    {
+        this.elapsedNanos = elapsedNanos;
+
+        counters.forEach((name, value) ->
+        {
+            final Matcher matcher = ROUTE_COUNTER_PATTERN.matcher(name);
+            if (matcher.matches())
+            {
+                switch (String.format("%s.%s", matcher.group("kind"), matcher.group("direction")))
+                {
+                case "bytes.read":
+                    bytesRead += value;
+                    break;
+                case "bytes.written":
+                    bytesWritten += value;
+                    break;
+                case "frames.read":
+                    framesRead += value;
+                    break;
+                case "frames.written":
+                    framesWritten += value;
+                    break;
+                case "windows.read":
+                    windowsRead += value;
+                    break;
+                case "windows.written":
+                    windowsWritten += value;
+                    break;
+                case "resets.read":
+                    resetsRead += value;
+                    break;
+                case "resets.written":
+                    resetsWritten += value;
+                    break;
+                case "aborts.read":
+                    abortsRead += value;
+                    break;
+                case "aborts.written":
+                    abortsWritten += value;
+                    break;
+                default:
+                    break;
+                }
+            }
+        });
+    }
+
+    public long elapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    public long bytesRead()
+    {
+        return bytesRead;
+    }
+
+    public long bytesWritten()
+    {
+        return bytesWritten;
+    }
+
+    public long framesRead()
+    {
+        return framesRead;
+    }
+
+    public long framesWritten()
+    {
+        return framesWritten;
+    }
+
+    public long windowsRead()
+    {
+        return windowsRead;
+    }
+
+    public long windowsWritten()
+    {
+        return windowsWritten;
+    }
+
+    public long resetsRead()
+    {
+        return resetsRead;
+    }
+
+    public long resetsWritten()
+    {
+        return resetsWritten;
+    }
+
+    public long abortsRead()
+    {
+        return abortsRead;
+    }
+
+    public long abortsWritten()
+    {
+        return abortsWritten;
+    }
+
+    public double bytesReadPerSecond()
+    {
+        return perSecond(bytesRead);
+    }
+
+    public double bytesWrittenPerSecond()
+    {
+        return perSecond(bytesWritten);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("elapsed=%dms bytes=%d/%d (%.0f/%.0f B/s) frames=%d/%d windows=%d/%d resets=%d/%d aborts=%d/%d " +
+                "(read/written)", elapsedNanos / 1_000_000L, bytesRead, bytesWritten,
+                bytesReadPerSecond(), bytesWrittenPerSecond(), framesRead, framesWritten,
+                windowsRead, windowsWritten, resetsRead, resetsWritten, abortsRead, abortsWritten);
+    }
+
+    private double perSecond(
+        long value)
+    {
+        return elapsedNanos > 0L ? (double) value * SECONDS.toNanos(1L) / elapsedNanos : 0.0;
+    }
+}
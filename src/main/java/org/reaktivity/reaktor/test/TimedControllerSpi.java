@@ -0,0 +1,146 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.agrona.DirectBuffer;
+import org.reaktivity.nukleus.ControllerSpi;
+import org.reaktivity.nukleus.function.MessageFunction;
+
+final class TimedControllerSpi implements ControllerSpi
+{
+    private final ControllerSpi delegate;
+    private final Function<String, LatencyHistogram> supplyLatency;
+
+    TimedControllerSpi(
+        ControllerSpi delegate,
+        Function<String, LatencyHistogram> supplyLatency)
+    {
+        this.delegate = delegate;
+        this.supplyLatency = supplyLatency;
+    }
+
+    @Override
+    public long nextCorrelationId()
+    {
+        return delegate.nextCorrelationId();
+    }
+
+    @Override
+    public int doProcess()
+    {
+        return delegate.doProcess();
+    }
+
+    @Override
+    public void doClose()
+    {
+        delegate.doClose();
+    }
+
+    @Override
+    public CompletableFuture<Long> doResolve(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final long issuedAt = System.nanoTime();
+        return timed("resolve", issuedAt, delegate.doResolve(msgTypeId, buffer, index, length));
+    }
+
+    @Override
+    public CompletableFuture<Void> doUnresolve(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final long issuedAt = System.nanoTime();
+        return timed("unresolve", issuedAt, delegate.doUnresolve(msgTypeId, buffer, index, length));
+    }
+
+    @Override
+    public CompletableFuture<Long> doRoute(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final long issuedAt = System.nanoTime();
+        return timed("route", issuedAt, delegate.doRoute(msgTypeId, buffer, index, length));
+    }
+
+    @Override
+    public CompletableFuture<Void> doUnroute(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final long issuedAt = System.nanoTime();
+        return timed("unroute", issuedAt, delegate.doUnroute(msgTypeId, buffer, index, length));
+    }
+
+    @Override
+    public CompletableFuture<Void> doFreeze(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final long issuedAt = System.nanoTime();
+        return timed("freeze", issuedAt, delegate.doFreeze(msgTypeId, buffer, index, length));
+    }
+
+    @Override
+    public CompletableFuture<Void> doCommand(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final long issuedAt = System.nanoTime();
+        return timed("command", issuedAt, delegate.doCommand(msgTypeId, buffer, index, length));
+    }
+
+    @Override
+    public <R> CompletableFuture<R> doCommand(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length,
+        MessageFunction<R> mapper)
+    {
+        final long issuedAt = System.nanoTime();
+        return timed("command", issuedAt, delegate.doCommand(msgTypeId, buffer, index, length, mapper));
+    }
+
+    private <R> CompletableFuture<R> timed(
+        String operation,
+        long issuedAt,
+        CompletableFuture<R> future)
+    {
+        return future.whenComplete((r, e) ->
+        {
+            final long latencyNanos = System.nanoTime() - issuedAt;
+            final String outcome = e == null ? operation : String.format("%s.failed", operation);
+            supplyLatency.apply(outcome).record(latencyNanos);
+        });
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test.nukleus;
+
+import org.reaktivity.nukleus.Configuration;
+
+public class SlowConsumerConfiguration extends Configuration
+{
+    public static final IntPropertyDef SLOW_CONSUMER_WINDOW;
+    public static final LongPropertyDef SLOW_CONSUMER_DELAY_MILLIS;
+
+    private static final ConfigurationDef SLOW_CONSUMER_CONFIG;
+
+    static
+    {
+        final ConfigurationDef config = new ConfigurationDef("nukleus.slow");
+        SLOW_CONSUMER_WINDOW = config.property("window", 1024);
+        SLOW_CONSUMER_DELAY_MILLIS = config.property("delay.millis", 10L);
+        SLOW_CONSUMER_CONFIG = config;
+    }
+
+    public SlowConsumerConfiguration(
+        Configuration config)
+    {
+        super(SLOW_CONSUMER_CONFIG, config);
+    }
+
+    public int window()
+    {
+        return SLOW_CONSUMER_WINDOW.getAsInt(this);
+    }
+
+    public long delayMillis()
+    {
+        return SLOW_CONSUMER_DELAY_MILLIS.getAsLong(this);
+    }
+}
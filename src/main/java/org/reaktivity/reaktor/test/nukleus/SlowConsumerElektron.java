@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test.nukleus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.agrona.collections.LongArrayQueue;
+import org.agrona.concurrent.Agent;
+import org.reaktivity.nukleus.Elektron;
+import org.reaktivity.nukleus.route.RouteKind;
+import org.reaktivity.nukleus.stream.StreamFactoryBuilder;
+
+/**
+ * Releases delayed windows from the elektron loop, avoiding the coarse tick of the reaktor timer wheel.
+ */
+final class SlowConsumerElektron implements Elektron, Agent
+{
+    private final SlowConsumerConfiguration config;
+    private final long delayMillis;
+    private final LongArrayQueue deadlines;
+    private final Deque<Runnable> windows;
+
+    SlowConsumerElektron(
+        SlowConsumerConfiguration config)
+    {
+        this.config = config;
+        this.delayMillis = config.delayMillis();
+        this.deadlines = new LongArrayQueue();
+        this.windows = new ArrayDeque<>();
+    }
+
+    @Override
+    public StreamFactoryBuilder streamFactoryBuilder(
+        RouteKind kind)
+    {
+        return new SlowConsumerStreamFactoryBuilder(config, this::scheduleWindow);
+    }
+
+    @Override
+    public Agent agent()
+    {
+        return this;
+    }
+
+    @Override
+    public int doWork()
+    {
+        final long now = System.currentTimeMillis();
+
+        int workDone = 0;
+        while (!deadlines.isEmpty() && deadlines.peekLong() <= now)
+        {
+            deadlines.pollLong();
+            windows.poll().run();
+            workDone++;
+        }
+
+        return workDone;
+    }
+
+    @Override
+    public String roleName()
+    {
+        return SlowConsumerNukleusFactorySpi.NAME;
+    }
+
+    private void scheduleWindow(
+        Runnable doWindow)
+    {
+        deadlines.addLong(System.currentTimeMillis() + delayMillis);
+        windows.add(doWindow);
+    }
+}
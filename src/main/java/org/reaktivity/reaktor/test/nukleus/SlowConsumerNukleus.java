@@ -0,0 +1,49 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test.nukleus;
+
+import org.reaktivity.nukleus.Elektron;
+import org.reaktivity.nukleus.Nukleus;
+
+final class SlowConsumerNukleus implements Nukleus
+{
+    private final SlowConsumerConfiguration config;
+
+    SlowConsumerNukleus(
+        SlowConsumerConfiguration config)
+    {
+        this.config = config;
+    }
+
+    @Override
+    public String name()
+    {
+        return SlowConsumerNukleusFactorySpi.NAME;
+    }
+
+    @Override
+    public SlowConsumerConfiguration config()
+    {
+        return config;
+    }
+
+    @Override
+    public Elektron supplyElektron(
+        int index)
+    {
+        return new SlowConsumerElektron(config);
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test.nukleus;
+
+import org.reaktivity.nukleus.Configuration;
+import org.reaktivity.nukleus.Nukleus;
+import org.reaktivity.nukleus.NukleusFactorySpi;
+
+/**
+ * Test nukleus that accepts streams routed to its addresses and consumes them slowly,
+ * granting a small window initially and after every delay, as configured by {@link SlowConsumerConfiguration}.
+ * Streams that overrun the granted window are reset.
+ */
+public final class SlowConsumerNukleusFactorySpi implements NukleusFactorySpi
+{
+    public static final String NAME = "slow";
+
+    @Override
+    public String name()
+    {
+        return NAME;
+    }
+
+    @Override
+    public Nukleus create(
+        Configuration config)
+    {
+        return new SlowConsumerNukleus(new SlowConsumerConfiguration(config));
+    }
+}
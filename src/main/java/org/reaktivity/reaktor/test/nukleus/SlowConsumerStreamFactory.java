@@ -0,0 +1,186 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test.nukleus;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.stream.StreamFactory;
+import org.reaktivity.reaktor.internal.types.stream.AbortFW;
+import org.reaktivity.reaktor.internal.types.stream.BeginFW;
+import org.reaktivity.reaktor.internal.types.stream.DataFW;
+import org.reaktivity.reaktor.internal.types.stream.EndFW;
+import org.reaktivity.reaktor.internal.types.stream.ResetFW;
+import org.reaktivity.reaktor.internal.types.stream.WindowFW;
+
+final class SlowConsumerStreamFactory implements StreamFactory
+{
+    private final BeginFW beginRO = new BeginFW();
+    private final DataFW dataRO = new DataFW();
+
+    private final WindowFW.Builder windowRW = new WindowFW.Builder();
+    private final ResetFW.Builder resetRW = new ResetFW.Builder();
+
+    private final int window;
+    private final MutableDirectBuffer writeBuffer;
+    private final Consumer<Runnable> scheduleWindow;
+    private final LongSupplier supplyTraceId;
+
+    SlowConsumerStreamFactory(
+        SlowConsumerConfiguration config,
+        MutableDirectBuffer writeBuffer,
+        Consumer<Runnable> scheduleWindow,
+        LongSupplier supplyTraceId)
+    {
+        this.window = config.window();
+        this.writeBuffer = writeBuffer;
+        this.scheduleWindow = scheduleWindow;
+        this.supplyTraceId = supplyTraceId;
+    }
+
+    @Override
+    public MessageConsumer newStream(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length,
+        MessageConsumer sender)
+    {
+        final BeginFW begin = beginRO.wrap(buffer, index, index + length);
+        final long streamId = begin.streamId();
+
+        MessageConsumer newStream = null;
+
+        if ((streamId & 0x0000_0000_0000_0001L) != 0L)
+        {
+            newStream = new SlowConsumerStream(sender, begin.routeId(), streamId)::onMessage;
+        }
+
+        return newStream;
+    }
+
+    private final class SlowConsumerStream
+    {
+        private final MessageConsumer sender;
+        private final long routeId;
+        private final long initialId;
+
+        private long initialSeq;
+        private long initialAck;
+        private boolean windowPending;
+        private boolean closed;
+
+        private SlowConsumerStream(
+            MessageConsumer sender,
+            long routeId,
+            long initialId)
+        {
+            this.sender = sender;
+            this.routeId = routeId;
+            this.initialId = initialId;
+        }
+
+        private void onMessage(
+            int msgTypeId,
+            DirectBuffer buffer,
+            int index,
+            int length)
+        {
+            switch (msgTypeId)
+            {
+            case BeginFW.TYPE_ID:
+                doWindow();
+                break;
+            case DataFW.TYPE_ID:
+                final DataFW data = dataRO.wrap(buffer, index, index + length);
+                onData(data);
+                break;
+            case EndFW.TYPE_ID:
+            case AbortFW.TYPE_ID:
+                closed = true;
+                break;
+            default:
+                break;
+            }
+        }
+
+        private void onData(
+            DataFW data)
+        {
+            initialSeq = data.sequence() + data.reserved();
+
+            if (closed)
+            {
+                // ignore data after end, abort or reset
+            }
+            else if (initialSeq - initialAck > window)
+            {
+                // expose window overruns as resets rather than silently buffering them
+                closed = true;
+                doReset();
+            }
+            else if (!windowPending)
+            {
+                windowPending = true;
+                scheduleWindow.accept(this::onWindowDue);
+            }
+        }
+
+        private void onWindowDue()
+        {
+            windowPending = false;
+
+            if (!closed)
+            {
+                initialAck = initialSeq;
+                doWindow();
+            }
+        }
+
+        private void doWindow()
+        {
+            final WindowFW windowFW = windowRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                .routeId(routeId)
+                .streamId(initialId)
+                .sequence(initialSeq)
+                .acknowledge(initialAck)
+                .maximum(window)
+                .traceId(supplyTraceId.getAsLong())
+                .budgetId(0L)
+                .padding(0)
+                .build();
+
+            sender.accept(windowFW.typeId(), windowFW.buffer(), windowFW.offset(), windowFW.sizeof());
+        }
+
+        private void doReset()
+        {
+            final ResetFW reset = resetRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                .routeId(routeId)
+                .streamId(initialId)
+                .sequence(initialSeq)
+                .acknowledge(initialAck)
+                .maximum(window)
+                .traceId(supplyTraceId.getAsLong())
+                .build();
+
+            sender.accept(reset.typeId(), reset.buffer(), reset.offset(), reset.sizeof());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test.nukleus;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.agrona.MutableDirectBuffer;
+import org.reaktivity.nukleus.stream.StreamFactory;
+import org.reaktivity.nukleus.stream.StreamFactoryBuilder;
+
+final class SlowConsumerStreamFactoryBuilder implements StreamFactoryBuilder
+{
+    private final SlowConsumerConfiguration config;
+    private final Consumer<Runnable> scheduleWindow;
+
+    private MutableDirectBuffer writeBuffer;
+    private LongSupplier supplyTraceId;
+
+    SlowConsumerStreamFactoryBuilder(
+        SlowConsumerConfiguration config,
+        Consumer<Runnable> scheduleWindow)
+    {
+        this.config = config;
+        this.scheduleWindow = scheduleWindow;
+    }
+
+    @Override
+    public StreamFactoryBuilder setWriteBuffer(
+        MutableDirectBuffer writeBuffer)
+    {
+        this.writeBuffer = writeBuffer;
+        return this;
+    }
+
+    @Override
+    public StreamFactoryBuilder setTraceIdSupplier(
+        LongSupplier supplyTraceId)
+    {
+        this.supplyTraceId = supplyTraceId;
+        return this;
+    }
+
+    @Override
+    public StreamFactory build()
+    {
+        return new SlowConsumerStreamFactory(config, writeBuffer, scheduleWindow, supplyTraceId);
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CountersExporterTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldExportPrometheusAndCsv() throws Exception
+    {
+        final Path directory = folder.getRoot().toPath().resolve("metrics");
+        final CountersExporter exporter = new CountersExporter(directory, "Test.shouldExport");
+
+        final Map<String, Long> counters = new TreeMap<>();
+        counters.put("example.1.bytes.read", 42L);
+        counters.put("example.2.bytes.read", 7L);
+        counters.put("example.routes", 2L);
+
+        exporter.export(1000L, counters);
+        exporter.export(2000L, counters);
+
+        assertEquals(List.of(
+            "# TYPE reaktor_bytes_read_total counter",
+            "reaktor_bytes_read_total{nukleus=\"example\",route_id=\"1\"} 42",
+            "reaktor_bytes_read_total{nukleus=\"example\",route_id=\"2\"} 7",
+            "# TYPE reaktor_example_routes counter",
+            "reaktor_example_routes 2"),
+            Files.readAllLines(directory.resolve("Test.shouldExport.prom"), UTF_8));
+
+        assertEquals(List.of(
+            "timestamp,name,nukleus,routeId,kind,direction,value",
+            "1000,example.1.bytes.read,example,1,bytes,read,42",
+            "1000,example.2.bytes.read,example,2,bytes,read,7",
+            "1000,example.routes,,,,,2",
+            "2000,example.1.bytes.read,example,1,bytes,read,42",
+            "2000,example.2.bytes.read,example,2,bytes,read,7",
+            "2000,example.routes,,,,,2"),
+            Files.readAllLines(directory.resolve("Test.shouldExport.csv"), UTF_8));
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void shouldReportEmptyHistogram() throws Exception
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0L, histogram.count());
+        assertEquals(0L, histogram.minNanos());
+        assertEquals(0L, histogram.meanNanos());
+        assertEquals(0L, histogram.percentileNanos(99.0));
+        assertEquals(0L, histogram.maxNanos());
+    }
+
+    @Test
+    public void shouldRecordLatencies() throws Exception
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long value = 1L; value <= 100L; value++)
+        {
+            histogram.record(value * 1000L);
+        }
+
+        assertEquals(100L, histogram.count());
+        assertEquals(1000L, histogram.minNanos());
+        assertEquals(50500L, histogram.meanNanos());
+        assertEquals(50175L, histogram.percentileNanos(50.0));
+        assertEquals(99327L, histogram.percentileNanos(99.0));
+        assertEquals(100000L, histogram.maxNanos());
+    }
+
+    @Test
+    public void shouldBoundPercentileError() throws Exception
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long value = 0L; value < 1000L; value++)
+        {
+            histogram.record(value);
+        }
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(501L, histogram.percentileNanos(50.0));
+        assertEquals(Long.MAX_VALUE, histogram.percentileNanos(100.0));
+
+        for (long value = 128L; value > 0L && value < Long.MAX_VALUE / 2; value = value * 3 + 1)
+        {
+            LatencyHistogram single = new LatencyHistogram();
+            single.record(value);
+            single.record(Long.MAX_VALUE);
+
+            final long percentile = single.percentileNanos(50.0);
+            assertTrue(percentile >= value);
+            assertTrue(percentile - value < value / 128 + 1);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static org.agrona.BitUtil.align;
+import static org.agrona.concurrent.broadcast.RecordDescriptor.HEADER_LENGTH;
+import static org.agrona.concurrent.broadcast.RecordDescriptor.RECORD_ALIGNMENT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.reaktivity.nukleus.route.RouteKind.CLIENT;
+import static org.reaktivity.nukleus.route.RouteKind.SERVER;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_ROUTED_DELAY_MILLIS;
+
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.reaktivity.reaktor.internal.types.control.RoutedFW;
+import org.reaktivity.reaktor.test.TestControllerFactorySpi.TestController;
+
+public class ReaktorRuleControllerTest
+{
+    @Rule
+    public final ReaktorRule reaktor = new ReaktorRule()
+        .directory("target/reaktor-controller")
+        .nukleus("test"::equals)
+        .controller("test"::equals)
+        .nukleusFactory(TestNukleusFactorySpi.class)
+        .controllerFactory(TestControllerFactorySpi.class)
+        .configure(REAKTOR_ROUTED_DELAY_MILLIS, 0L)
+        .clean();
+
+    @Test
+    public void shouldTimeControllerOperationsAndMeasureControlBuffers() throws Exception
+    {
+        assertEquals(0, reaktor.commandBufferOccupancy());
+        assertEquals(0L, reaktor.responseBytesWritten());
+
+        final TestController controller = reaktor.controller(TestController.class);
+        controller.route(SERVER, "test#0", "test#0", null).join();
+        controller.route(SERVER, "test#1", "test#1", null).join();
+
+        final LatencyHistogram latency = reaktor.latency("test.route");
+        assertEquals(Set.of("test.route"), reaktor.latencies().keySet());
+        assertEquals(0L, reaktor.latency("test.unroute").count());
+        assertEquals(Set.of("test.route"), reaktor.latencies().keySet());
+        assertEquals(2L, latency.count());
+        assertTrue(latency.minNanos() > 0L);
+
+        final int routedLength = align(HEADER_LENGTH + RoutedFW.FIELD_OFFSET_ROUTE_ID + Long.BYTES, RECORD_ALIGNMENT);
+        assertEquals(2L * routedLength, reaktor.responseBytesWritten());
+    }
+
+    @Test
+    public void shouldTimeFailedControllerOperationsSeparately() throws Exception
+    {
+        final TestController controller = reaktor.controller(TestController.class);
+        controller.route(SERVER, "test#0", "test#0", null).join();
+
+        try
+        {
+            controller.route(CLIENT, "test#1", "test#1", null).join();
+            fail("client route should be rejected");
+        }
+        catch (CompletionException ex)
+        {
+            // expected
+        }
+
+        assertEquals(Set.of("test.route", "test.route.failed"), reaktor.latencies().keySet());
+        assertEquals(1L, reaktor.latency("test.route").count());
+        assertEquals(1L, reaktor.latency("test.route.failed").count());
+    }
+}
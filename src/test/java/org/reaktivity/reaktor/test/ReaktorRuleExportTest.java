@@ -0,0 +1,129 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.route.RouteKind.SERVER;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_ROUTED_DELAY_MILLIS;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.reaktivity.reaktor.test.TestControllerFactorySpi.TestController;
+
+public class ReaktorRuleExportTest
+{
+    private static final Path EXPORT_DIRECTORY = Paths.get("target/reaktor-exports");
+
+    @Test
+    public void shouldExportAllCountersOnCompletion() throws Throwable
+    {
+        final Path prometheus = EXPORT_DIRECTORY.resolve("ReaktorRuleExportTest.shouldExportAllCountersOnCompletion.prom");
+        final Path csv = EXPORT_DIRECTORY.resolve("ReaktorRuleExportTest.shouldExportAllCountersOnCompletion.csv");
+
+        Files.createDirectories(EXPORT_DIRECTORY);
+        Files.write(csv, List.of("stale"), UTF_8);
+
+        final ReaktorRule rule = new ReaktorRule()
+            .directory("target/reaktor-export")
+            .nukleus("test"::equals)
+            .controller("test"::equals)
+            .nukleusFactory(TestNukleusFactorySpi.class)
+            .controllerFactory(TestControllerFactorySpi.class)
+            .configure(REAKTOR_ROUTED_DELAY_MILLIS, 0L)
+            .exportCounters(EXPORT_DIRECTORY.toString())
+            .exportRouteCounters("test", 1L)
+            .clean();
+
+        evaluate(rule, "shouldExportAllCountersOnCompletion", () ->
+        {
+            rule.controller(TestController.class).route(SERVER, "test#0", "test#0", null).join();
+            assertTrue(Files.notExists(csv));
+        });
+
+        final List<String> metrics = Files.readAllLines(prometheus, UTF_8);
+        assertTrue(metrics.contains("reaktor_test_acquires 0"));
+        assertTrue(metrics.contains("reaktor_test_releases 0"));
+        assertTrue(metrics.contains("reaktor_opens_read_total{nukleus=\"test\",route_id=\"1\"} 0"));
+
+        final List<String> samples = Files.readAllLines(csv, UTF_8);
+        assertEquals("timestamp,name,nukleus,routeId,kind,direction,value", samples.get(0));
+        assertTrue(samples.stream().anyMatch(s -> s.endsWith(",test.acquires,,,,,0")));
+        assertTrue(samples.stream().noneMatch("stale"::equals));
+    }
+
+    @Test
+    public void shouldExportCountersOnIntervalAndCompletion() throws Throwable
+    {
+        final Path csv = EXPORT_DIRECTORY.resolve("ReaktorRuleExportTest.shouldExportCountersOnIntervalAndCompletion.csv");
+
+        final ReaktorRule rule = new ReaktorRule()
+            .directory("target/reaktor-export")
+            .nukleus("test"::equals)
+            .nukleusFactory(TestNukleusFactorySpi.class)
+            .exportCounters(EXPORT_DIRECTORY.toString())
+            .exportCountersInterval(1L)
+            .exportCounter("test.acquires")
+            .clean();
+
+        evaluate(rule, "shouldExportCountersOnIntervalAndCompletion", () ->
+        {
+            try
+            {
+                while (Files.notExists(csv))
+                {
+                    Thread.sleep(10L);
+                }
+                Thread.sleep(50L);
+            }
+            catch (InterruptedException ex)
+            {
+                throw new AssertionError(ex);
+            }
+        });
+
+        final List<String> samples = Files.readAllLines(csv, UTF_8);
+        final long snapshots = samples.stream()
+            .filter(s -> s.endsWith(",test.acquires,,,,,0"))
+            .count();
+        assertEquals("timestamp,name,nukleus,routeId,kind,direction,value", samples.get(0));
+        assertTrue(snapshots > 1L);
+    }
+
+    private static void evaluate(
+        ReaktorRule rule,
+        String testMethod,
+        Runnable assertions) throws Throwable
+    {
+        final Statement statement = new Statement()
+        {
+            @Override
+            public void evaluate()
+            {
+                assertions.run();
+            }
+        };
+
+        rule.apply(statement, Description.createTestDescription(ReaktorRuleExportTest.class, testMethod)).evaluate();
+    }
+}
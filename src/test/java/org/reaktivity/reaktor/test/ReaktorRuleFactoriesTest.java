@@ -0,0 +1,59 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.reaktivity.reaktor.test.OtherNukleusFactorySpi.OtherNukleus;
+import org.reaktivity.reaktor.test.TestControllerFactorySpi.TestController;
+import org.reaktivity.reaktor.test.TestNukleusFactorySpi.TestNukleus;
+
+public class ReaktorRuleFactoriesTest
+{
+    @Rule
+    public final ReaktorRule reaktor = new ReaktorRule()
+        .directory("target/reaktor-factories")
+        .nukleus(n -> true)
+        .controller(c -> true)
+        .nukleusFactory(TestNukleusFactorySpi.class)
+        .nukleusFactory(OtherNukleusFactorySpi.class)
+        .controllerFactory(TestControllerFactorySpi.class)
+        .clean();
+
+    @Test
+    public void shouldLoadAllRegisteredFactories() throws Exception
+    {
+        assertEquals("test", reaktor.nukleus(TestNukleus.class).name());
+        assertEquals("other", reaktor.nukleus(OtherNukleus.class).name());
+        assertSame(TestController.class, reaktor.controller(TestController.class).kind());
+    }
+
+    @Test
+    public void shouldNotBuildLoaderUntilEvaluated() throws Exception
+    {
+        final int loaders = Services.loaders();
+
+        new ReaktorRule()
+            .nukleusFactory(OtherNukleusFactorySpi.class)
+            .nukleusFactory(TestNukleusFactorySpi.class)
+            .controllerFactory(TestControllerFactorySpi.class);
+
+        assertEquals(loaders, Services.loaders());
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.route.RouteKind.CLIENT;
+import static org.reaktivity.nukleus.route.RouteKind.SERVER;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_DRAIN_ON_CLOSE;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_ROUTED_DELAY_MILLIS;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.UnaryOperator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.reaktivity.reaktor.ReaktorConfiguration;
+import org.reaktivity.reaktor.test.SourceNukleusFactorySpi.SourceNukleus;
+import org.reaktivity.reaktor.test.TestControllerFactorySpi.TestController;
+import org.reaktivity.reaktor.test.annotation.Configure;
+
+@RunWith(Parameterized.class)
+public class ReaktorRulePresetsTest
+{
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data()
+    {
+        return Arrays.asList(new Object[][]
+        {
+            { "lowLatency", (UnaryOperator<ReaktorRule>) ReaktorRule::lowLatency,
+                1024 * 1024, 16 * 1024, 1024 * 1024, MICROSECONDS.toNanos(100L) },
+            { "lowFootprint", (UnaryOperator<ReaktorRule>) ReaktorRule::lowFootprint,
+                64 * 1024, 4 * 1024, 256 * 1024, MILLISECONDS.toNanos(10L) },
+            { "highThroughput", (UnaryOperator<ReaktorRule>) ReaktorRule::highThroughput,
+                16 * 1024 * 1024, 64 * 1024, 4 * 1024 * 1024, MILLISECONDS.toNanos(1L) }
+        });
+    }
+
+    private final int streamsBufferCapacity;
+    private final int bufferSlotCapacity;
+    private final int counterValuesBufferCapacity;
+    private final long maxParkNanos;
+
+    @Rule
+    public final ReaktorRule reaktor;
+
+    public ReaktorRulePresetsTest(
+        String name,
+        UnaryOperator<ReaktorRule> preset,
+        int streamsBufferCapacity,
+        int bufferSlotCapacity,
+        int counterValuesBufferCapacity,
+        long maxParkNanos)
+    {
+        this.streamsBufferCapacity = streamsBufferCapacity;
+        this.bufferSlotCapacity = bufferSlotCapacity;
+        this.counterValuesBufferCapacity = counterValuesBufferCapacity;
+        this.maxParkNanos = maxParkNanos;
+        this.reaktor = preset.apply(new ReaktorRule()
+            .directory("target/reaktor-presets")
+            .nukleus("source"::equals)
+            .controller("test"::equals)
+            .nukleusFactory(SourceNukleusFactorySpi.class)
+            .controllerFactory(TestControllerFactorySpi.class)
+            .configure(REAKTOR_ROUTED_DELAY_MILLIS, 0L)
+            .configure(REAKTOR_DRAIN_ON_CLOSE, false) // source completes before its END is read
+            .clean())
+            .slowConsumer(bufferSlotCapacity, 0L);
+    }
+
+    @Test
+    public void shouldStartWithPreset() throws Exception
+    {
+        final ReaktorConfiguration config = reaktor.configuration();
+
+        assertNotNull(reaktor.nukleus(SourceNukleus.class));
+        assertEquals(streamsBufferCapacity, config.streamsBufferCapacity());
+        assertEquals(bufferSlotCapacity, config.bufferSlotCapacity());
+        assertEquals(counterValuesBufferCapacity, config.counterValuesBufferCapacity());
+        assertEquals(maxParkNanos, config.maxParkNanos());
+    }
+
+    @Test
+    public void shouldWriteFullSlotDataFrames() throws Exception
+    {
+        final TestController controller = reaktor.controller(TestController.class);
+        controller.route(SERVER, "slow#0", "slow#0", null).join();
+        controller.route(CLIENT, "source#0", "slow#0", null).join();
+
+        final SourceNukleus source = reaktor.nukleus(SourceNukleus.class);
+        assertTrue(source.awaitCompleted(10, SECONDS));
+        assertEquals(source.totalBytes(), reaktor.stressReport().bytesWritten());
+    }
+
+    @Test
+    @Configure(name = ReaktorRule.REAKTOR_BUFFER_SLOT_CAPACITY_NAME, value = "4096")
+    @Configure(name = "reaktor.backoff.idle.strategy.max.park.period", value = "5000000")
+    public void shouldOverridePresetWithConfigure() throws Exception
+    {
+        final ReaktorConfiguration config = reaktor.configuration();
+
+        assertEquals(4096, config.bufferSlotCapacity());
+        assertEquals(MILLISECONDS.toNanos(5L), config.maxParkNanos());
+        assertEquals(streamsBufferCapacity, config.streamsBufferCapacity());
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.route.RouteKind.CLIENT;
+import static org.reaktivity.nukleus.route.RouteKind.SERVER;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_DRAIN_ON_CLOSE;
+import static org.reaktivity.reaktor.ReaktorConfiguration.REAKTOR_ROUTED_DELAY_MILLIS;
+import static org.reaktivity.reaktor.test.SourceNukleusFactorySpi.CHUNK_COUNT;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.reaktivity.reaktor.test.SourceNukleusFactorySpi.SourceNukleus;
+import org.reaktivity.reaktor.test.TestControllerFactorySpi.TestController;
+
+public class ReaktorRuleStressTest
+{
+    @Test
+    public void shouldReportStressAgainstSlowConsumer() throws Throwable
+    {
+        final ReaktorRule rule = new ReaktorRule()
+            .directory("target/reaktor-stress")
+            .nukleus("source"::equals)
+            .controller("test"::equals)
+            .nukleusFactory(SourceNukleusFactorySpi.class)
+            .controllerFactory(TestControllerFactorySpi.class)
+            .configure(REAKTOR_ROUTED_DELAY_MILLIS, 0L)
+            .configure(REAKTOR_DRAIN_ON_CLOSE, false) // source completes before its END is read
+            .slowConsumer(1024, 1L)
+            .exportCounters("target/reaktor-exports")
+            .stress()
+            .clean();
+
+        evaluate(rule, "shouldReportStressAgainstSlowConsumer", () ->
+        {
+            try
+            {
+                final TestController controller = rule.controller(TestController.class);
+                controller.route(SERVER, "slow#0", "slow#0", null).join();
+                controller.route(CLIENT, "source#0", "slow#0", null).join();
+
+                assertTrue(rule.nukleus(SourceNukleus.class).awaitCompleted(10, SECONDS));
+            }
+            catch (InterruptedException ex)
+            {
+                throw new AssertionError(ex);
+            }
+        });
+
+        final StressReport stress = rule.stressReport();
+        final Path report = Paths.get("target/reaktor-exports")
+            .resolve("ReaktorRuleStressTest.shouldReportStressAgainstSlowConsumer.stress.txt");
+        assertEquals(CHUNK_COUNT * 1024, stress.bytesWritten());
+        assertTrue(stress.framesWritten() >= CHUNK_COUNT);
+        assertTrue(stress.windowsRead() > 1L);
+        assertEquals(0L, stress.resetsRead());
+        assertTrue(Files.exists(report));
+    }
+
+    @Test
+    public void shouldStressWithFullSlotFrames() throws Throwable
+    {
+        final ReaktorRule rule = new ReaktorRule()
+            .directory("target/reaktor-stress")
+            .nukleus("source"::equals)
+            .controller("test"::equals)
+            .nukleusFactory(SourceNukleusFactorySpi.class)
+            .controllerFactory(TestControllerFactorySpi.class)
+            .configure(REAKTOR_ROUTED_DELAY_MILLIS, 0L)
+            .configure(REAKTOR_DRAIN_ON_CLOSE, false) // source completes before its END is read
+            .slowConsumer(16 * 1024, 0L)
+            .stress(16 * 1024, 4)
+            .clean();
+
+        evaluate(rule, "shouldStressWithFullSlotFrames", () ->
+        {
+            try
+            {
+                final TestController controller = rule.controller(TestController.class);
+                controller.route(SERVER, "slow#0", "slow#0", null).join();
+                controller.route(CLIENT, "source#0", "slow#0", null).join();
+
+                assertTrue(rule.nukleus(SourceNukleus.class).awaitCompleted(10, SECONDS));
+            }
+            catch (InterruptedException ex)
+            {
+                throw new AssertionError(ex);
+            }
+        });
+
+        assertEquals(CHUNK_COUNT * 16 * 1024, rule.stressReport().bytesWritten());
+    }
+
+    @Test
+    public void shouldResetStreamsOverrunningSlowConsumerWindow() throws Throwable
+    {
+        final ReaktorRule rule = new ReaktorRule()
+            .directory("target/reaktor-stress")
+            .nukleus("source"::equals)
+            .controller("test"::equals)
+            .nukleusFactory(SourceNukleusFactorySpi.class)
+            .controllerFactory(TestControllerFactorySpi.class)
+            .configure(REAKTOR_ROUTED_DELAY_MILLIS, 0L)
+            .configure(REAKTOR_DRAIN_ON_CLOSE, false) // source completes before its END is read
+            .slowConsumer(1024, 1L)
+            .stress()
+            .clean();
+
+        evaluate(rule, "shouldResetStreamsOverrunningSlowConsumerWindow", () ->
+        {
+            try
+            {
+                final SourceNukleus source = rule.nukleus(SourceNukleus.class);
+                source.overrun();
+
+                final TestController controller = rule.controller(TestController.class);
+                controller.route(SERVER, "slow#0", "slow#0", null).join();
+                controller.route(CLIENT, "source#0", "slow#0", null).join();
+
+                assertTrue(source.awaitCompleted(10, SECONDS));
+            }
+            catch (InterruptedException ex)
+            {
+                throw new AssertionError(ex);
+            }
+        });
+
+        final StressReport stress = rule.stressReport();
+        assertEquals(CHUNK_COUNT * 1024, stress.bytesWritten());
+        assertEquals(1L, stress.resetsRead());
+    }
+
+    @Test
+    public void shouldNotRetainStressReportWithoutStress() throws Throwable
+    {
+        final ReaktorRule rule = new ReaktorRule()
+            .directory("target/reaktor-stress")
+            .clean();
+
+        evaluate(rule, "shouldNotRetainStressReportWithoutStress", () ->
+            assertEquals(0L, rule.stressReport().bytesWritten()));
+
+        assertThrows(IllegalStateException.class, rule::stressReport);
+    }
+
+    private static void evaluate(
+        ReaktorRule rule,
+        String testMethod,
+        Runnable assertions) throws Throwable
+    {
+        final Statement statement = new Statement()
+        {
+            @Override
+            public void evaluate()
+            {
+                assertions.run();
+            }
+        };
+
+        rule.apply(statement, Description.createTestDescription(ReaktorRuleStressTest.class, testMethod)).evaluate();
+    }
+}
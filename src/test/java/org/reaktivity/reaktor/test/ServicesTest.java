@@ -0,0 +1,85 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import org.junit.Test;
+
+public class ServicesTest
+{
+    @Test
+    public void shouldLoadMultipleImplementations() throws Exception
+    {
+        ClassLoader loader = Services.builder()
+            .service(TestService.class, TestServiceB.class)
+            .service(TestService.class, TestServiceA.class)
+            .service(Runnable.class, TestRunnable.class)
+            .build();
+
+        List<Class<?>> services = new ArrayList<>();
+        ServiceLoader.load(TestService.class, loader).forEach(s -> services.add(s.getClass()));
+        ServiceLoader.load(Runnable.class, loader).forEach(s -> services.add(s.getClass()));
+
+        assertEquals(List.of(TestServiceA.class, TestServiceB.class, TestRunnable.class), services);
+    }
+
+    @Test
+    public void shouldReuseLoaderForIdenticalRegistrations() throws Exception
+    {
+        ClassLoader loader = Services.builder()
+            .service(TestService.class, TestServiceA.class)
+            .service(TestService.class, TestServiceB.class)
+            .build();
+
+        ClassLoader reordered = Services.builder()
+            .service(TestService.class, TestServiceB.class)
+            .service(TestService.class, TestServiceA.class)
+            .service(TestService.class, TestServiceA.class)
+            .build();
+
+        assertSame(loader, reordered);
+        assertSame(Services.newLoader(TestService.class, TestServiceA.class),
+                   Services.newLoader(TestService.class, TestServiceA.class));
+        assertNotSame(loader, Services.newLoader(TestService.class, TestServiceA.class));
+    }
+
+    public interface TestService
+    {
+    }
+
+    public static final class TestServiceA implements TestService
+    {
+    }
+
+    public static final class TestServiceB implements TestService
+    {
+    }
+
+    public static final class TestRunnable implements Runnable
+    {
+        @Override
+        public void run()
+        {
+        }
+    }
+}
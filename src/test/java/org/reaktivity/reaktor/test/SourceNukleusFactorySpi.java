@@ -0,0 +1,321 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.nukleus.Configuration;
+import org.reaktivity.nukleus.Elektron;
+import org.reaktivity.nukleus.Nukleus;
+import org.reaktivity.nukleus.NukleusFactorySpi;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.route.RouteKind;
+import org.reaktivity.nukleus.route.RouteManager;
+import org.reaktivity.nukleus.stream.StreamFactory;
+import org.reaktivity.nukleus.stream.StreamFactoryBuilder;
+import org.reaktivity.reaktor.ReaktorConfiguration;
+import org.reaktivity.reaktor.internal.types.control.RouteFW;
+import org.reaktivity.reaktor.internal.types.stream.BeginFW;
+import org.reaktivity.reaktor.internal.types.stream.DataFW;
+import org.reaktivity.reaktor.internal.types.stream.EndFW;
+import org.reaktivity.reaktor.internal.types.stream.ResetFW;
+import org.reaktivity.reaktor.internal.types.stream.WindowFW;
+
+public final class SourceNukleusFactorySpi implements NukleusFactorySpi
+{
+    static final int CHUNK_COUNT = 16;
+
+    @Override
+    public String name()
+    {
+        return "source";
+    }
+
+    @Override
+    public Nukleus create(
+        Configuration config)
+    {
+        return new SourceNukleus(name(), config);
+    }
+
+    public static final class SourceNukleus implements Nukleus
+    {
+        private final String name;
+        private final Configuration config;
+        private final CountDownLatch completed;
+        private final int chunkBytes;
+
+        private volatile boolean overrun;
+
+        SourceNukleus(
+            String name,
+            Configuration config)
+        {
+            this.name = name;
+            this.config = config;
+            this.completed = new CountDownLatch(1);
+            this.chunkBytes = new ReaktorConfiguration(config).bufferSlotCapacity();
+        }
+
+        @Override
+        public String name()
+        {
+            return name;
+        }
+
+        @Override
+        public Configuration config()
+        {
+            return config;
+        }
+
+        @Override
+        public Elektron supplyElektron(
+            int index)
+        {
+            return new SourceElektron(name, completed, chunkBytes, () -> overrun);
+        }
+
+        public void overrun()
+        {
+            this.overrun = true;
+        }
+
+        public int totalBytes()
+        {
+            return CHUNK_COUNT * chunkBytes;
+        }
+
+        public boolean awaitCompleted(
+            long timeout,
+            TimeUnit unit) throws InterruptedException
+        {
+            return completed.await(timeout, unit);
+        }
+    }
+
+    private static final class SourceElektron implements Elektron, StreamFactoryBuilder, Agent
+    {
+        private final RouteFW routeRO = new RouteFW();
+        private final WindowFW windowRO = new WindowFW();
+
+        private final BeginFW.Builder beginRW = new BeginFW.Builder();
+        private final DataFW.Builder dataRW = new DataFW.Builder();
+        private final EndFW.Builder endRW = new EndFW.Builder();
+
+        private final String name;
+        private final CountDownLatch completed;
+        private final DirectBuffer payload;
+        private final int chunkBytes;
+        private final int totalBytes;
+        private final BooleanSupplier overrun;
+
+        private RouteManager router;
+        private MutableDirectBuffer writeBuffer;
+        private LongUnaryOperator supplyInitialId;
+        private LongSupplier supplyTraceId;
+
+        private MessageConsumer receiver;
+        private long routeId;
+        private long initialId;
+        private long initialSeq;
+        private long initialAck;
+        private int initialMax;
+        private int written;
+
+        private SourceElektron(
+            String name,
+            CountDownLatch completed,
+            int chunkBytes,
+            BooleanSupplier overrun)
+        {
+            this.name = name;
+            this.completed = completed;
+            this.payload = new UnsafeBuffer(new byte[chunkBytes]);
+            this.chunkBytes = chunkBytes;
+            this.totalBytes = CHUNK_COUNT * chunkBytes;
+            this.overrun = overrun;
+        }
+
+        @Override
+        public StreamFactoryBuilder streamFactoryBuilder(
+            RouteKind kind)
+        {
+            return this;
+        }
+
+        @Override
+        public Agent agent()
+        {
+            return this;
+        }
+
+        @Override
+        public StreamFactoryBuilder setRouteManager(
+            RouteManager router)
+        {
+            this.router = router;
+            return this;
+        }
+
+        @Override
+        public StreamFactoryBuilder setWriteBuffer(
+            MutableDirectBuffer writeBuffer)
+        {
+            this.writeBuffer = writeBuffer;
+            return this;
+        }
+
+        @Override
+        public StreamFactoryBuilder setInitialIdSupplier(
+            LongUnaryOperator supplyInitialId)
+        {
+            this.supplyInitialId = supplyInitialId;
+            return this;
+        }
+
+        @Override
+        public StreamFactoryBuilder setTraceIdSupplier(
+            LongSupplier supplyTraceId)
+        {
+            this.supplyTraceId = supplyTraceId;
+            return this;
+        }
+
+        @Override
+        public StreamFactory build()
+        {
+            return (t, b, i, l, s) -> null;
+        }
+
+        @Override
+        public String roleName()
+        {
+            return name;
+        }
+
+        @Override
+        public int doWork()
+        {
+            int workDone = 0;
+
+            if (receiver == null)
+            {
+                final Long resolvedId = router.resolveExternal(0L,
+                    (t, b, i, l) -> name.equals(routeRO.wrap(b, i, i + l).nukleus().asString()),
+                    (t, b, i, l) -> routeRO.wrap(b, i, i + l).correlationId());
+
+                if (resolvedId != null)
+                {
+                    doBegin(resolvedId);
+                    workDone++;
+                }
+            }
+
+            return workDone;
+        }
+
+        private void doBegin(
+            long resolvedId)
+        {
+            routeId = resolvedId;
+            initialId = supplyInitialId.applyAsLong(routeId);
+            receiver = router.supplyReceiver(initialId);
+            router.setThrottle(initialId, this::onThrottle);
+
+            final BeginFW begin = beginRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                .routeId(routeId)
+                .streamId(initialId)
+                .sequence(initialSeq)
+                .acknowledge(initialAck)
+                .maximum(initialMax)
+                .traceId(supplyTraceId.getAsLong())
+                .affinity(0L)
+                .build();
+
+            receiver.accept(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+        }
+
+        private void onThrottle(
+            int msgTypeId,
+            DirectBuffer buffer,
+            int index,
+            int length)
+        {
+            switch (msgTypeId)
+            {
+            case WindowFW.TYPE_ID:
+                final WindowFW window = windowRO.wrap(buffer, index, index + length);
+                initialAck = window.acknowledge();
+                initialMax = window.maximum();
+                doFlush();
+                break;
+            case ResetFW.TYPE_ID:
+                completed.countDown();
+                break;
+            default:
+                break;
+            }
+        }
+
+        private void doFlush()
+        {
+            final boolean overrun = this.overrun.getAsBoolean();
+
+            while (written < totalBytes && (overrun || initialSeq + chunkBytes - initialAck <= initialMax))
+            {
+                final DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                    .routeId(routeId)
+                    .streamId(initialId)
+                    .sequence(initialSeq)
+                    .acknowledge(initialAck)
+                    .maximum(initialMax)
+                    .traceId(supplyTraceId.getAsLong())
+                    .budgetId(0L)
+                    .reserved(chunkBytes)
+                    .payload(payload, 0, chunkBytes)
+                    .build();
+
+                receiver.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
+                initialSeq += chunkBytes;
+                written += chunkBytes;
+            }
+
+            if (written == totalBytes && !overrun && completed.getCount() != 0L)
+            {
+                final EndFW end = endRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                    .routeId(routeId)
+                    .streamId(initialId)
+                    .sequence(initialSeq)
+                    .acknowledge(initialAck)
+                    .maximum(initialMax)
+                    .traceId(supplyTraceId.getAsLong())
+                    .build();
+
+                receiver.accept(end.typeId(), end.buffer(), end.offset(), end.sizeof());
+                completed.countDown();
+            }
+        }
+    }
+}
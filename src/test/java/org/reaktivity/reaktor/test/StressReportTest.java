@@ -0,0 +1,49 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class StressReportTest
+{
+    @Test
+    public void shouldAggregateRouteCounters() throws Exception
+    {
+        StressReport report = new StressReport(SECONDS.toNanos(2L), Map.of(
+            "example.1.bytes.read", 2048L,
+            "example.2.bytes.read", 2048L,
+            "example.1.bytes.written", 1024L,
+            "example.1.resets.written", 3L,
+            "example.1.windows.read", 5L,
+            "example.2.aborts.read", 1L,
+            "example.routes", 2L));
+
+        assertEquals(4096L, report.bytesRead());
+        assertEquals(1024L, report.bytesWritten());
+        assertEquals(5L, report.windowsRead());
+        assertEquals(0L, report.windowsWritten());
+        assertEquals(3L, report.resetsWritten());
+        assertEquals(0L, report.resetsRead());
+        assertEquals(1L, report.abortsRead());
+        assertEquals(2048.0, report.bytesReadPerSecond(), 0.0);
+        assertEquals(512.0, report.bytesWrittenPerSecond(), 0.0);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktor.test;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.nukleus.Configuration;
+import org.reaktivity.nukleus.Controller;
+import org.reaktivity.nukleus.ControllerBuilder;
+import org.reaktivity.nukleus.ControllerFactorySpi;
+import org.reaktivity.nukleus.ControllerSpi;
+import org.reaktivity.nukleus.route.RouteKind;
+import org.reaktivity.reaktor.internal.types.control.Role;
+import org.reaktivity.reaktor.internal.types.control.RouteFW;
+
+public final class TestControllerFactorySpi implements ControllerFactorySpi<TestControllerFactorySpi.TestController>
+{
+    @Override
+    public String name()
+    {
+        return "test";
+    }
+
+    @Override
+    public Class<TestController> kind()
+    {
+        return TestController.class;
+    }
+
+    @Override
+    public TestController create(
+        Configuration config,
+        ControllerBuilder<TestController> builder)
+    {
+        return builder.setFactory(TestController::new)
+                      .build();
+    }
+
+    public static final class TestController implements Controller
+    {
+        private final ControllerSpi controllerSpi;
+        private final RouteFW.Builder routeRW;
+        private final MutableDirectBuffer commandBuffer;
+
+        TestController(
+            ControllerSpi controllerSpi)
+        {
+            this.controllerSpi = controllerSpi;
+            this.routeRW = new RouteFW.Builder();
+            this.commandBuffer = new UnsafeBuffer(new byte[1024]);
+        }
+
+        @Override
+        public int process()
+        {
+            return controllerSpi.doProcess();
+        }
+
+        @Override
+        public CompletableFuture<Long> route(
+            RouteKind kind,
+            String localAddress,
+            String remoteAddress,
+            String extension)
+        {
+            final String nukleus = localAddress.substring(0, localAddress.indexOf('#'));
+            final RouteFW route = routeRW.wrap(commandBuffer, 0, commandBuffer.capacity())
+                .correlationId(controllerSpi.nextCorrelationId())
+                .nukleus(nukleus)
+                .role(r -> r.set(Role.valueOf(kind.ordinal())))
+                .authorization(0L)
+                .localAddress(localAddress)
+                .remoteAddress(remoteAddress)
+                .build();
+
+            return controllerSpi.doRoute(route.typeId(), route.buffer(), route.offset(), route.sizeof());
+        }
+
+        @Override
+        public void close() throws Exception
+        {
+            controllerSpi.doClose();
+        }
+
+        @Override
+        public Class<TestController> kind()
+        {
+            return TestController.class;
+        }
+
+        @Override
+        public String name()
+        {
+            return "test";
+        }
+    }
+}